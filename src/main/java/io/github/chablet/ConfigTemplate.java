@@ -32,6 +32,7 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -91,6 +92,26 @@ public class ConfigTemplate extends AbstractMojo {
 	@Parameter(property = "targetDirectory", defaultValue = "${project.build.directory}/configuration")
 	protected File targetDirectory;
 
+	/**
+	 * The project build directory, the {@code workDirectory} must be inside it.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}", readonly = true)
+	protected File buildDirectory;
+
+	/**
+	 * Whether to expand {@code #include "path"} directives in templates. When disabled, those lines are filtered as
+	 * any other content.
+	 */
+	@Parameter(defaultValue = "false")
+	protected boolean processIncludes;
+
+	/**
+	 * Location of templates with expanded {@code #include} directives. The content is rebuilt on every execution,
+	 * so it must be inside the project build directory.
+	 */
+	@Parameter(defaultValue = "${project.build.directory}/config-template")
+	protected File workDirectory;
+
 	/**
 	 * Flag to overwrite configuration.
 	 */
@@ -187,6 +208,16 @@ public class ConfigTemplate extends AbstractMojo {
 		}
 		List<String> excludes = new ArrayList<>(envProperties.keySet());
 
+		//resolve includes once, all environments share the expanded templates
+		List<Resource> expandedTemplates = templates;
+		if (processIncludes) {
+			try {
+				expandedTemplates = expandIncludes(templates, charset());
+			} catch (IOException e) {
+				throw new MojoExecutionException(e);
+			}
+		}
+
 		for (Map.Entry<String, Properties> environment : envProperties.entrySet()) {
 			Path environmentFolder = targetDirectory.toPath().resolve(environment.getKey());
 
@@ -194,8 +225,124 @@ public class ConfigTemplate extends AbstractMojo {
 			copyStatic(staticResources, environmentFolder, excludes, environment.getKey());
 			Util.processValues(environment.getValue(), environmentFolder);
 
-			generateConfiguration(templates, environment.getValue(), environmentFolder);
+			generateConfiguration(expandedTemplates, environment.getValue(), environmentFolder);
+		}
+	}
+
+	/**
+	 * Expand {@code #include} directives of the given template resources.
+	 *
+	 * <p>Fragments are resolved against the template directories through a single {@link TemplateFragments}
+	 * instance, so each file is read once for all templates. Only the files selected by the includes/excludes of a
+	 * resource are scanned. Resources without any directive are returned unchanged. Otherwise, the templates with
+	 * directives are written expanded to the {@code workDirectory} and returned as an additional {@link Resource},
+	 * while a copy of the original resource excluding them filters the remaining templates in place.</p>
+	 *
+	 * @param resources the list of template resources
+	 * @param charset character set of the templates
+	 * @return the list of resources to filter
+	 * @throws IOException if a template cannot be read or written, a fragment is missing or an include cycle exists
+	 * @throws MojoExecutionException if the {@code workDirectory} is not safe to delete
+	 */
+	private List<Resource> expandIncludes(List<Resource> resources, Charset charset) throws IOException, MojoExecutionException {
+		List<Path> directories = new ArrayList<>(resources.size());
+		resources.forEach(resource -> directories.add(resolveDirectory(resource)));
+
+		Path workFolder = checkWorkDirectory(directories).resolve("templates");
+		Util.deleteDirectory(workFolder);
+
+		TemplateFragments fragments = new TemplateFragments(directories, charset);
+		List<Resource> expanded = new ArrayList<>(resources.size());
+		for (int i = 0; i < resources.size(); i++) {
+			Resource resource = resources.get(i);
+			Path directory = directories.get(i);
+			Path resourceFolder = workFolder.resolve(String.valueOf(i));
+			List<String> rewritten = new ArrayList<>();
+			for (String name : Util.scanFiles(directory, resource.getIncludes(), resource.getExcludes())) {
+				String content = fragments.expand(directory.resolve(name));
+				if (content == null) {
+					continue;
+				}
+				Path target = resourceFolder.resolve(name);
+				Files.createDirectories(target.getParent());
+				//replace unmappable characters, as the filtering does
+				Files.write(target, content.getBytes(charset));
+				rewritten.add(name.replace(File.separatorChar, '/'));
+			}
+			if (rewritten.isEmpty()) {
+				expanded.add(resource);
+				continue;
+			}
+
+			//templates without directives are filtered from their original location
+			Resource original = resource.clone();
+			rewritten.forEach(original::addExclude);
+			expanded.add(original);
+
+			Resource staged = resource.clone();
+			staged.setDirectory(resourceFolder.toString());
+			staged.setIncludes(new ArrayList<>());
+			staged.setExcludes(new ArrayList<>());
+			expanded.add(staged);
+		}
+		getLog().debug("Read " + fragments.reads() + " template files.");
+		return expanded;
+	}
+
+	/**
+	 * Ensure the {@code workDirectory} is inside the project build directory and does not overlap any template or
+	 * static resource directory, as its content is deleted on every execution.
+	 *
+	 * @param templateDirectories resolved template directories
+	 * @return absolute path of the work directory
+	 * @throws MojoExecutionException if the work directory is not safe to delete
+	 */
+	private Path checkWorkDirectory(List<Path> templateDirectories) throws MojoExecutionException {
+		Path work = workDirectory.toPath().toAbsolutePath().normalize();
+		Path build = buildDirectory.toPath().toAbsolutePath().normalize();
+		if (!work.startsWith(build)) {
+			throw new MojoExecutionException("workDirectory " + work + " must be inside the build directory " + build);
+		}
+
+		List<Path> directories = new ArrayList<>(templateDirectories);
+		if (staticResources != null) {
+			staticResources.forEach(resource -> directories.add(resolveDirectory(resource)));
 		}
+		for (Path directory : directories) {
+			Path resourceDirectory = directory.toAbsolutePath().normalize();
+			if (work.startsWith(resourceDirectory) || resourceDirectory.startsWith(work)) {
+				throw new MojoExecutionException("workDirectory " + work + " overlaps the resource directory " + resourceDirectory);
+			}
+		}
+		return work;
+	}
+
+	/**
+	 * Character set used to read and write templates.
+	 *
+	 * @return the configured encoding, or the platform encoding if none is set
+	 * @throws MojoExecutionException if the encoding is not supported
+	 */
+	private Charset charset() throws MojoExecutionException {
+		if (encoding == null || encoding.isEmpty()) {
+			return Charset.defaultCharset();
+		}
+		try {
+			return Charset.forName(encoding);
+		} catch (IllegalArgumentException e) {
+			throw new MojoExecutionException("Unsupported encoding: " + encoding, e);
+		}
+	}
+
+	/**
+	 * Resolve the directory of a resource against the project base directory.
+	 *
+	 * @param resource the resource
+	 * @return absolute path of the resource directory
+	 */
+	private Path resolveDirectory(Resource resource) {
+		Path directory = Path.of(resource.getDirectory());
+		return directory.isAbsolute() ? directory : project.getBasedir().toPath().resolve(directory);
 	}
 
 	/**
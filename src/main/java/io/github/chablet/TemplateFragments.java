@@ -0,0 +1,203 @@
+package io.github.chablet;
+
+/*
+ * Copyright 2001-2005 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Resolves {@code #include "path"} directives in templates.
+ *
+ * <p>A directive must be the only content of its line. The line is replaced by the content of the referenced
+ * fragment, each non-blank fragment line prefixed with the indentation of the directive. Fragment paths are relative
+ * to the template directories, which are searched in order, the first existing file wins. Fragments may include other
+ * fragments.</p>
+ *
+ * <p>Templates and fragments are cached by their real path, so a file is read and split in lines only once
+ * regardless of how many templates include it. A single instance is meant to be shared for the whole execution.</p>
+ */
+public class TemplateFragments {
+	private static final Pattern INCLUDE_PATTERN = Pattern.compile("^([ \\t]*)#include[ \\t]+\"([^\"]+)\"[ \\t]*$");
+
+	private static final Pattern LINE_PATTERN = Pattern.compile("(?<=\\n)");
+
+	private final List<Path> baseDirectories;
+
+	private final Charset charset;
+
+	private final Map<Path, Fragment> cache = new HashMap<>();
+
+	private final LinkedHashSet<Path> inProgress = new LinkedHashSet<>();
+
+	private int reads;
+
+	/**
+	 * Create a resolver for the given template directories.
+	 *
+	 * @param baseDirectories directories used to resolve fragment paths, in lookup order
+	 * @param charset character set used to read templates and fragments
+	 */
+	public TemplateFragments(List<Path> baseDirectories, Charset charset) {
+		this.baseDirectories = new ArrayList<>(baseDirectories);
+		this.charset = charset;
+	}
+
+	/**
+	 * Return the content of a template with its include directives expanded.
+	 *
+	 * <p>The file shares the cache of fragments, so a template that is also included by another template is read
+	 * only once.</p>
+	 *
+	 * @param file template file
+	 * @return expanded content, or {@code null} if the template has no include directive
+	 * @throws IOException if the template or a fragment cannot be read, or if an include cycle is detected
+	 */
+	public String expand(Path file) throws IOException {
+		Fragment fragment = load(file.toRealPath());
+		return fragment.hasInclude() ? String.join("", fragment.lines()) : null;
+	}
+
+	/**
+	 * Number of files read so far.
+	 *
+	 * @return files read from disk
+	 */
+	public int reads() {
+		return reads;
+	}
+
+	/**
+	 * Return the expanded lines of a file, reading and parsing it on first use.
+	 *
+	 * @param file real path of the file
+	 * @return expanded file
+	 * @throws IOException if the file cannot be read, or if an include cycle is detected
+	 */
+	private Fragment load(Path file) throws IOException {
+		Fragment fragment = cache.get(file);
+		if (fragment != null) {
+			return fragment;
+		}
+		if (!inProgress.add(file)) {
+			throw new IOException("Include cycle detected: " + cycle(file));
+		}
+		try {
+			String content = new String(Files.readAllBytes(file), charset);
+			reads++;
+			fragment = parse(content);
+		} finally {
+			inProgress.remove(file);
+		}
+		cache.put(file, fragment);
+		return fragment;
+	}
+
+	/**
+	 * Find the first template directory containing the referenced fragment. References must be relative and stay
+	 * inside the template directory.
+	 *
+	 * @param reference fragment path as written in the directive
+	 * @return real path to the fragment
+	 * @throws IOException if no template directory contains the fragment
+	 */
+	private Path locate(String reference) throws IOException {
+		if (!Path.of(reference).isAbsolute()) {
+			for (Path baseDirectory : baseDirectories) {
+				Path candidate = baseDirectory.resolve(reference);
+				if (Files.isRegularFile(candidate) && Files.isDirectory(baseDirectory)) {
+					Path fragment = candidate.toRealPath();
+					if (fragment.startsWith(baseDirectory.toRealPath())) {
+						return fragment;
+					}
+				}
+			}
+		}
+		throw new IOException("Template fragment not found: " + reference + " in " + baseDirectories);
+	}
+
+	/**
+	 * Split the content in lines, replacing include directives with the lines of their fragment.
+	 *
+	 * @param content file content
+	 * @return expanded file
+	 * @throws IOException if a fragment cannot be found or read, or if an include cycle is detected
+	 */
+	private Fragment parse(String content) throws IOException {
+		List<String> lines = new ArrayList<>();
+		boolean hasInclude = false;
+		for (String line : LINE_PATTERN.split(content)) {
+			if (line.isEmpty()) {
+				continue;
+			}
+			String text = stripLineEnd(line);
+			Matcher matcher = text.contains("#include") ? INCLUDE_PATTERN.matcher(text) : null;
+			if (matcher == null || !matcher.matches()) {
+				lines.add(line);
+				continue;
+			}
+			hasInclude = true;
+			String indent = matcher.group(1);
+			List<String> fragmentLines = load(locate(matcher.group(2))).lines();
+			for (int i = 0; i < fragmentLines.size(); i++) {
+				String fragmentLine = fragmentLines.get(i);
+				//blank lines are not indented
+				String included = stripLineEnd(fragmentLine).isEmpty() ? fragmentLine : indent.concat(fragmentLine);
+				//keep the line ending of the directive when the fragment does not end with one
+				if (i == fragmentLines.size() - 1 && !fragmentLine.endsWith("\n")) {
+					included = included.concat(line.substring(text.length()));
+				}
+				lines.add(included);
+			}
+		}
+		return new Fragment(List.copyOf(lines), hasInclude);
+	}
+
+	private String cycle(Path repeated) {
+		StringBuilder sb = new StringBuilder();
+		inProgress.forEach(path -> sb.append(path).append(" -> "));
+		return sb.append(repeated).toString();
+	}
+
+	private static String stripLineEnd(String line) {
+		int end = line.length();
+		if (end > 0 && line.charAt(end - 1) == '\n') {
+			end--;
+		}
+		if (end > 0 && line.charAt(end - 1) == '\r') {
+			end--;
+		}
+		return line.substring(0, end);
+	}
+
+	/**
+	 * Expanded content of a file.
+	 *
+	 * @param lines lines with all directives expanded, each one with its line ending
+	 * @param hasInclude whether the original content had any include directive
+	 */
+	private record Fragment(List<String> lines, boolean hasInclude) {
+	}
+}
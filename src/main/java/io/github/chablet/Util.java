@@ -16,10 +16,14 @@ package io.github.chablet;
  * limitations under the License.
  */
 
+import org.codehaus.plexus.util.DirectoryScanner;
+
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -179,4 +183,44 @@ public class Util {
 			properties.putAll(updates);
 		}
 	}
+
+	/**
+	 * Scan the files of a directory selected by the given patterns, the same way resources are selected for filtering.
+	 *
+	 * @param directory directory to scan
+	 * @param includes include patterns; all files are included if empty
+	 * @param excludes exclude patterns, in addition to the default excludes
+	 * @return sorted relative paths of the selected files, or an empty list if the directory does not exist
+	 */
+	public static List<String> scanFiles(Path directory, List<String> includes, List<String> excludes) {
+		if (!Files.isDirectory(directory)) {
+			return Collections.emptyList();
+		}
+		DirectoryScanner scanner = new DirectoryScanner();
+		scanner.setBasedir(directory.toFile());
+		scanner.setIncludes(includes == null || includes.isEmpty() ? new String[] {"**/**"} : includes.toArray(new String[0]));
+		if (excludes != null && !excludes.isEmpty()) {
+			scanner.setExcludes(excludes.toArray(new String[0]));
+		}
+		scanner.addDefaultExcludes();
+		scanner.scan();
+		return Arrays.stream(scanner.getIncludedFiles()).sorted().toList();
+	}
+
+	/**
+	 * Delete a directory and all its content. Nothing is done if the directory does not exist.
+	 *
+	 * @param directory directory to delete
+	 * @throws IOException if any file cannot be deleted
+	 */
+	public static void deleteDirectory(Path directory) throws IOException {
+		if (!Files.exists(directory)) {
+			return;
+		}
+		try (Stream<Path> stream = Files.walk(directory)) {
+			for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+				Files.delete(path);
+			}
+		}
+	}
 }
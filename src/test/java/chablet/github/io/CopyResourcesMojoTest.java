@@ -19,6 +19,7 @@ package chablet.github.io;
 import io.github.chablet.ConfigTemplate;
 import org.apache.maven.api.plugin.testing.Basedir;
 import org.apache.maven.api.plugin.testing.InjectMojo;
+import org.apache.maven.api.plugin.testing.MojoParameter;
 import org.apache.maven.api.plugin.testing.MojoTest;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.jupiter.api.Test;
@@ -30,6 +31,8 @@ import java.nio.file.Path;
 import java.util.Properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @MojoTest
@@ -87,4 +90,97 @@ class CopyResourcesMojoTest {
 		}
 	}
 
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@Basedir("target/test-classes")
+	void includes(ConfigTemplate mojo) throws MojoExecutionException, IOException {
+
+		mojo.execute();
+
+		Path output = Path.of("target/test-classes/output-includes");
+
+		//fragments are not part of the configuration
+		assertFalse(output.resolve("env1/fragments").toFile().exists());
+
+		//included fragments are filtered for each environment
+		Properties env1 = load(output.resolve("env1/app.properties"));
+		assertEquals("env1.val2", env1.get("test2"));
+		assertEquals("all-enviroments", env1.get("test4"));
+		assertEquals("INFO", env1.get("log.level"));
+
+		Properties env2 = load(output.resolve("env2/app.properties"));
+		assertEquals("env2.val2", env2.get("test2"));
+		assertEquals("all-enviroments", env2.get("test4"));
+		assertEquals("INFO", env2.get("log.level"));
+
+		//only templates with directives are staged
+		Path work = Path.of("target/test-classes/target/work/templates/0");
+		assertTrue(work.resolve("app.properties").toFile().isFile());
+		assertFalse(work.resolve("fragments").toFile().exists());
+	}
+
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@MojoParameter(name = "processIncludes", value = "false")
+	@MojoParameter(name = "encoding", value = "UTF-8")
+	@MojoParameter(name = "targetDirectory", value = "output-includes-disabled")
+	@Basedir("target/test-classes")
+	void includesDisabled(ConfigTemplate mojo) throws MojoExecutionException, IOException {
+
+		mojo.execute();
+
+		//directives are kept as any other content
+		String content = Files.readString(Path.of("target/test-classes/output-includes-disabled/env1/app.properties"));
+		assertTrue(content.contains("#include \"fragments/common.properties\""));
+	}
+
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@MojoParameter(name = "encoding", value = "US-ASCII")
+	@MojoParameter(name = "targetDirectory", value = "output-includes-ascii")
+	@Basedir("target/test-classes")
+	void includesNonUnicodeEncoding(ConfigTemplate mojo) throws MojoExecutionException, IOException {
+
+		mojo.execute();
+
+		//non-ASCII characters are replaced instead of failing
+		Properties env1 = load(Path.of("target/test-classes/output-includes-ascii/env1/accents.properties"));
+		assertEquals("Jos??", env1.get("name"));
+		assertEquals("INFO", env1.get("log.level"));
+	}
+
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@MojoParameter(name = "workDirectory", value = "sample-includes")
+	@Basedir("target/test-classes")
+	void workDirectoryOutsideBuild(ConfigTemplate mojo) {
+		assertThrows(MojoExecutionException.class, mojo::execute);
+		assertTrue(Path.of("target/test-classes/sample-includes/templates/app.properties").toFile().isFile());
+	}
+
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@MojoParameter(name = "buildDirectory", value = "sample-includes")
+	@MojoParameter(name = "workDirectory", value = "sample-includes")
+	@Basedir("target/test-classes")
+	void workDirectoryOverlapsTemplates(ConfigTemplate mojo) {
+		assertThrows(MojoExecutionException.class, mojo::execute);
+		assertTrue(Path.of("target/test-classes/sample-includes/templates/app.properties").toFile().isFile());
+	}
+
+	@Test
+	@InjectMojo(goal = "make-config", pom = "classpath:/sample-includes/plugin-config.xml")
+	@MojoParameter(name = "encoding", value = "unknown-encoding")
+	@Basedir("target/test-classes")
+	void unsupportedEncoding(ConfigTemplate mojo) {
+		assertThrows(MojoExecutionException.class, mojo::execute);
+	}
+
+	private static Properties load(Path file) throws IOException {
+		try (InputStream inputStream = Files.newInputStream(file)) {
+			Properties pf = new Properties();
+			pf.load(inputStream);
+			return pf;
+		}
+	}
 }
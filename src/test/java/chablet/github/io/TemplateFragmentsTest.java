@@ -0,0 +1,106 @@
+package chablet.github.io;
+
+/*
+ * Copyright 2001-2005 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *	  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import io.github.chablet.TemplateFragments;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TemplateFragmentsTest {
+	private final Path basePath = Path.of("src/test/resources");
+
+	private final Path template = basePath.resolve("sample-includes/templates/app.properties");
+
+	@TempDir
+	private Path tempDir;
+
+	@Test
+	void expand() throws IOException {
+		Path includes = basePath.resolve("includes");
+		TemplateFragments fragments = new TemplateFragments(
+				List.of(basePath.resolve("missing"), includes), StandardCharsets.UTF_8);
+
+		//indentation and line ending of the directive are kept
+		assertEquals("a=b\nkey: value\nnested:\n  list: true\nc=d", fragments.expand(includes.resolve("plain.txt")));
+		assertEquals("root:\n  key: value\n  nested:\n    list: true\r\n",
+				fragments.expand(includes.resolve("indented.yml")));
+
+		//no directive
+		assertNull(fragments.expand(includes.resolve("block.yml")));
+		//not alone in the line, missing quotes or trailing content
+		assertNull(fragments.expand(includes.resolve("text.txt")));
+
+		//every file is read only once
+		assertEquals(4, fragments.reads());
+
+		//blank lines of the fragment are not indented
+		assertEquals("root:\n  a: 1\n\n  b: 2\n", fragments.expand(includes.resolve("blank.yml")));
+
+		//unknown fragment
+		assertThrows(IOException.class, () -> fragments.expand(includes.resolve("missing.txt")));
+	}
+
+	@Test
+	void outsideTemplateDirectory() throws IOException {
+		Path includes = basePath.resolve("includes");
+		TemplateFragments fragments = new TemplateFragments(List.of(includes), StandardCharsets.UTF_8);
+
+		//relative path escaping the template directory
+		Path template = Files.writeString(tempDir.resolve("parent.txt"), "#include \"../file1.properties\"\n");
+		assertThrows(IOException.class, () -> fragments.expand(template));
+
+		//absolute path
+		Path absolute = Files.writeString(tempDir.resolve("absolute.txt"),
+				"#include \"" + includes.resolve("block.yml").toAbsolutePath() + "\"\n");
+		assertThrows(IOException.class, () -> fragments.expand(absolute));
+	}
+
+	@Test
+	void nestedIncludes() throws IOException {
+		Path templates = basePath.resolve("sample-includes/templates");
+		TemplateFragments fragments = new TemplateFragments(List.of(templates), StandardCharsets.UTF_8);
+
+		assertEquals("test1=${value1}\ntest2=${value2}\ntest3=${value3}\ntest4=${value1}\nlog.level=INFO\n",
+				fragments.expand(template));
+		assertEquals(3, fragments.reads());
+
+		//fragments already read are not read again when used as templates
+		assertEquals("test4=${value1}\nlog.level=INFO\n", fragments.expand(templates.resolve("fragments/common.properties")));
+		assertNull(fragments.expand(templates.resolve("fragments/logging.properties")));
+		assertEquals(3, fragments.reads());
+	}
+
+	@Test
+	void cycle() {
+		Path includes = basePath.resolve("includes");
+		TemplateFragments fragments = new TemplateFragments(List.of(includes), StandardCharsets.UTF_8);
+
+		IOException e = assertThrows(IOException.class, () -> fragments.expand(includes.resolve("first.txt")));
+		assertTrue(e.getMessage().startsWith("Include cycle detected"));
+	}
+}